@@ -8,6 +8,7 @@
 package org.seedstack.neo4j;
 
 import org.junit.Test;
+import org.neo4j.graphdb.security.AuthorizationViolationException;
 import org.seedstack.seed.SeedException;
 import org.seedstack.seed.it.AbstractSeedIT;
 import org.seedstack.neo4j.fixtures.Item;
@@ -17,8 +18,13 @@ import org.seedstack.seed.transaction.Propagation;
 import org.seedstack.seed.transaction.Transactional;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 public class Neo4jIT extends AbstractSeedIT {
     @Inject
@@ -27,6 +33,14 @@ public class Neo4jIT extends AbstractSeedIT {
     @Inject
     ItemThrowableHandler itemThrowableHandler;
 
+    @Inject
+    @Named("db2")
+    Neo4jAdmissionMetrics db2AdmissionMetrics;
+
+    @Inject
+    @Named("db1")
+    Neo4jStripedCounters db1Counters;
+
     @Test(expected = SeedException.class)
     public void access_outside_transaction() throws Exception {
         Item item1 = new Item();
@@ -75,6 +89,71 @@ public class Neo4jIT extends AbstractSeedIT {
         assertThat(itemThrowableHandler.hasHandled()).isTrue();
     }
 
+    @Test
+    @Transactional
+    @Neo4jDb("db2")
+    public void transaction_rejected_when_limit_reached() {
+        assertThat(db2AdmissionMetrics.getActiveTransactions()).isEqualTo(1);
+        long rejectedBefore = db2AdmissionMetrics.getRejectedTransactions();
+        try {
+            access_to_db2_with_new_transaction();
+            fail("transaction should have been rejected");
+        } catch (SeedException e) {
+            assertThat(db2AdmissionMetrics.getRejectedTransactions()).isEqualTo(rejectedBefore + 1);
+        }
+    }
+
+    @Test
+    @Transactional
+    @Neo4jDb("db1")
+    public void striped_counters() {
+        assertThat(db1Counters.get("visits")).isEqualTo(0L);
+        db1Counters.add("visits", 5);
+        db1Counters.add("visits", 3);
+        db1Counters.add("visits", -1);
+        assertThat(db1Counters.get("visits")).isEqualTo(7L);
+    }
+
+    @Test
+    @Transactional
+    @Neo4jDb("db1")
+    public void striped_counters_are_isolated_whatever_their_name() {
+        db1Counters.add("hits", 1);
+        for (int i = 0; i < 4; i++) {
+            db1Counters.add("hits#" + i, 10);
+            db1Counters.add(i + ":hits", 100);
+        }
+        assertThat(db1Counters.get("hits")).isEqualTo(1L);
+        assertThat(db1Counters.get("hits#0")).isEqualTo(10L);
+        assertThat(db1Counters.get("0:hits")).isEqualTo(100L);
+    }
+
+    @Test(expected = SeedException.class)
+    @Transactional
+    @Neo4jDb("db2")
+    public void striped_counters_outside_database_transaction() {
+        db1Counters.add("visits", 1);
+    }
+
+    @Test(expected = AuthorizationViolationException.class)
+    @Transactional
+    @Neo4jDb(value = "db1", readOnly = true)
+    public void read_only_transaction_rejects_writes() {
+        Item item = new Item();
+        item.setID(6L);
+        item.setName("item6Name");
+        itemRepository.save(item);
+    }
+
+    @Test
+    public void statistics_published_in_jmx() throws Exception {
+        ObjectName objectName = new ObjectName("org.seedstack.neo4j:type=Statistics,name=\"db1\"");
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertThat(mBeanServer.isRegistered(objectName)).isTrue();
+        assertThat((Long) mBeanServer.getAttribute(objectName, "StoreSize")).isGreaterThan(0L);
+        assertThat((Long) mBeanServer.getAttribute(objectName, "Timestamp")).isGreaterThan(0L);
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     @Neo4jDb("db2")
     protected void access_to_db2_with_new_transaction() {
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j;
+
+/**
+ * Admission statistics of a Neo4j graph database transactions. An instance is bound for each configured database and
+ * can be injected with the {@link javax.inject.Named} qualifier set to the database name.
+ */
+public interface Neo4jAdmissionMetrics {
+    /**
+     * @return the number of transactions currently running on the database.
+     */
+    int getActiveTransactions();
+
+    /**
+     * @return the number of transactions currently waiting to be admitted.
+     */
+    int getQueuedTransactions();
+
+    /**
+     * @return the total number of transactions admitted since startup.
+     */
+    long getAdmittedTransactions();
+
+    /**
+     * @return the total number of transactions rejected since startup.
+     */
+    long getRejectedTransactions();
+
+    /**
+     * @return the cumulated time in milliseconds spent by transactions waiting to be admitted.
+     */
+    long getTotalWaitTime();
+
+    /**
+     * @return the longest time in milliseconds a transaction has waited to be admitted.
+     */
+    long getMaxWaitTime();
+}
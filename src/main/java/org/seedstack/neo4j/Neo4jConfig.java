@@ -10,16 +10,23 @@ package org.seedstack.neo4j;
 import org.seedstack.coffig.Config;
 import org.seedstack.coffig.SingleValue;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Config("neo4j")
 public class Neo4jConfig {
     private Map<String, DatabaseConfig> databases = new HashMap<>();
     private String defaultDatabase;
+    private DiagnosticsConfig diagnostics = new DiagnosticsConfig();
+    private MemoryConfig memory = new MemoryConfig();
 
     public Map<String, DatabaseConfig> getDatabases() {
         return Collections.unmodifiableMap(databases);
@@ -39,6 +46,75 @@ public class Neo4jConfig {
         return this;
     }
 
+    public DiagnosticsConfig getDiagnostics() {
+        return diagnostics;
+    }
+
+    public MemoryConfig getMemory() {
+        return memory;
+    }
+
+    public static class MemoryConfig {
+        @Min(0)
+        private long reservedMemory = 1024L * 1024L * 1024L;
+        @DecimalMin("1")
+        private double storeGrowthFactor = 1.2;
+
+        public long getReservedMemory() {
+            return reservedMemory;
+        }
+
+        public MemoryConfig setReservedMemory(long reservedMemory) {
+            this.reservedMemory = reservedMemory;
+            return this;
+        }
+
+        public double getStoreGrowthFactor() {
+            return storeGrowthFactor;
+        }
+
+        public MemoryConfig setStoreGrowthFactor(double storeGrowthFactor) {
+            this.storeGrowthFactor = storeGrowthFactor;
+            return this;
+        }
+    }
+
+    public static class DiagnosticsConfig {
+        @Min(1)
+        private long refreshInterval = 10000;
+        private boolean jmxEnabled = true;
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double maxPageFaultRatio = 0.1;
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public DiagnosticsConfig setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        public boolean isJmxEnabled() {
+            return jmxEnabled;
+        }
+
+        public DiagnosticsConfig setJmxEnabled(boolean jmxEnabled) {
+            this.jmxEnabled = jmxEnabled;
+            return this;
+        }
+
+        public double getMaxPageFaultRatio() {
+            return maxPageFaultRatio;
+        }
+
+        public DiagnosticsConfig setMaxPageFaultRatio(double maxPageFaultRatio) {
+            this.maxPageFaultRatio = maxPageFaultRatio;
+            return this;
+        }
+    }
+
     public static class DatabaseConfig {
         @NotNull
         private DatabaseType type = DatabaseType.EMBEDDED;
@@ -47,6 +123,20 @@ public class Neo4jConfig {
         private URL propertiesURL;
         private Map<String, String> settings = new HashMap<>();
         private Class<? extends Neo4jExceptionHandler> exceptionHandler;
+        @Min(1)
+        private Integer maxConcurrentTransactions;
+        @Min(0)
+        private int maxQueuedTransactions = 0;
+        @Min(0)
+        private long queueTimeout = 1000;
+        @Min(1)
+        private Long transactionTimeout;
+        private boolean pageCacheAutoSizing = false;
+        @Min(1)
+        private Integer counterStripes;
+        @Min(1)
+        private long counterCompactionInterval = 60000;
+        private List<String> readReplicas = new ArrayList<>();
 
         public Class<? extends Neo4jExceptionHandler> getExceptionHandler() {
             return exceptionHandler;
@@ -92,6 +182,82 @@ public class Neo4jConfig {
             this.settings.put(key, value);
         }
 
+        public Integer getMaxConcurrentTransactions() {
+            return maxConcurrentTransactions;
+        }
+
+        public DatabaseConfig setMaxConcurrentTransactions(Integer maxConcurrentTransactions) {
+            this.maxConcurrentTransactions = maxConcurrentTransactions;
+            return this;
+        }
+
+        public int getMaxQueuedTransactions() {
+            return maxQueuedTransactions;
+        }
+
+        public DatabaseConfig setMaxQueuedTransactions(int maxQueuedTransactions) {
+            this.maxQueuedTransactions = maxQueuedTransactions;
+            return this;
+        }
+
+        public long getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public DatabaseConfig setQueueTimeout(long queueTimeout) {
+            this.queueTimeout = queueTimeout;
+            return this;
+        }
+
+        public Long getTransactionTimeout() {
+            return transactionTimeout;
+        }
+
+        public DatabaseConfig setTransactionTimeout(Long transactionTimeout) {
+            this.transactionTimeout = transactionTimeout;
+            return this;
+        }
+
+        public boolean isPageCacheAutoSizing() {
+            return pageCacheAutoSizing;
+        }
+
+        public DatabaseConfig setPageCacheAutoSizing(boolean pageCacheAutoSizing) {
+            this.pageCacheAutoSizing = pageCacheAutoSizing;
+            return this;
+        }
+
+        public Integer getCounterStripes() {
+            return counterStripes;
+        }
+
+        public DatabaseConfig setCounterStripes(Integer counterStripes) {
+            this.counterStripes = counterStripes;
+            return this;
+        }
+
+        public long getCounterCompactionInterval() {
+            return counterCompactionInterval;
+        }
+
+        public DatabaseConfig setCounterCompactionInterval(long counterCompactionInterval) {
+            this.counterCompactionInterval = counterCompactionInterval;
+            return this;
+        }
+
+        /**
+         * @return the names of the databases serving the read-only transactions of this database in round-robin. They
+         * must be configured with the {@code read_only} setting and are not synchronized with this database.
+         */
+        public List<String> getReadReplicas() {
+            return Collections.unmodifiableList(readReplicas);
+        }
+
+        public DatabaseConfig addReadReplica(String readReplica) {
+            this.readReplicas.add(readReplica);
+            return this;
+        }
+
         public enum DatabaseType {
             EMBEDDED
         }
@@ -26,4 +26,11 @@ public @interface Neo4jDb {
      * @return the configured graph database name.
      */
     String value();
+
+    /**
+     * @return true if the transaction only reads. Read-only transactions reject writes, skip commit and are routed
+     * to the read replicas of the graph database if any. Read replicas are independent read-only stores that are not
+     * synchronized with the graph database: keeping their content up-to-date is left to the application.
+     */
+    boolean readOnly() default false;
 }
@@ -13,6 +13,9 @@ import org.seedstack.seed.transaction.spi.TransactionMetadata;
 
 /**
  * Neo4J flavor of {@link ExceptionHandler}.
+ * <p>
+ * The handler is also notified when a transaction is rejected by the admission control of its database. In that case
+ * the associated transaction is null and the rejection is always thrown, whatever the handler returns.
  */
 public interface Neo4jExceptionHandler extends ExceptionHandler<Transaction> {
 
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j;
+
+import javax.management.MXBean;
+
+/**
+ * Store, page cache and transaction log statistics of a Neo4j graph database. Values are sampled periodically (see
+ * {@link Neo4jConfig.DiagnosticsConfig#getRefreshInterval()}) so reading them is cheap. Statistics are available
+ * programmatically from the Neo4j plugin and published through JMX under the
+ * {@code org.seedstack.neo4j:type=Statistics,name="<database>"} object name.
+ */
+@MXBean
+public interface Neo4jStatistics {
+    /**
+     * @return the name of the graph database.
+     */
+    String getName();
+
+    /**
+     * @return the timestamp in milliseconds of the last refresh of the statistics.
+     */
+    long getTimestamp();
+
+    /**
+     * @return the total size in bytes of the store directory including schema and index subdirectories, transaction
+     * logs excluded.
+     */
+    long getStoreSize();
+
+    /**
+     * @return the size in bytes of the node store.
+     */
+    long getNodeStoreSize();
+
+    /**
+     * @return the size in bytes of the relationship store.
+     */
+    long getRelationshipStoreSize();
+
+    /**
+     * @return the size in bytes of the property store, including string and array stores.
+     */
+    long getPropertyStoreSize();
+
+    /**
+     * @return the total size in bytes of the transaction log files.
+     */
+    long getTransactionLogSize();
+
+    /**
+     * @return the number of node ids in use.
+     */
+    long getNodeIdsInUse();
+
+    /**
+     * @return the number of relationship ids in use.
+     */
+    long getRelationshipIdsInUse();
+
+    /**
+     * @return the number of property ids in use.
+     */
+    long getPropertyIdsInUse();
+
+    /**
+     * @return the number of page cache pins that did not need a fault.
+     */
+    long getPageCacheHits();
+
+    /**
+     * @return the number of page cache faults.
+     */
+    long getPageCacheFaults();
+
+    /**
+     * @return the number of page cache evictions.
+     */
+    long getPageCacheEvictions();
+
+    /**
+     * @return the number of page cache flushes.
+     */
+    long getPageCacheFlushes();
+
+    /**
+     * @return the ratio of page cache pins that caused a fault during the last refresh interval.
+     */
+    double getPageFaultRatio();
+
+    /**
+     * @return the number of checkpoints since startup.
+     */
+    long getCheckPoints();
+
+    /**
+     * @return the cumulated time in milliseconds spent checkpointing.
+     */
+    long getCheckPointTotalTime();
+
+    /**
+     * @return the number of transaction log rotations since startup.
+     */
+    long getLogRotations();
+
+    /**
+     * @return the cumulated time in milliseconds spent rotating transaction logs.
+     */
+    long getLogRotationTotalTime();
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j;
+
+/**
+ * Counters spreading their writes across several stripe nodes to avoid lock contention on a single hot node. Each
+ * thread always writes to the same stripe and reads sum all stripes. Stripes are periodically folded back into the
+ * counter base node.
+ * <p>
+ * An instance is bound for each database having {@link Neo4jConfig.DatabaseConfig#getCounterStripes()} configured and
+ * can be injected with the {@link javax.inject.Named} qualifier set to the database name. Methods must be called
+ * within a transaction on that database (see {@link Neo4jDb}).
+ */
+public interface Neo4jStripedCounters {
+    /**
+     * Adds the specified amount to a counter, creating it if necessary.
+     *
+     * @param counter the counter name.
+     * @param delta   the amount to add (can be negative).
+     */
+    void add(String counter, long delta);
+
+    /**
+     * Returns the current value of a counter. The counter is read-locked until the end of the transaction so the value
+     * stays consistent with concurrent folding of the stripes, without blocking concurrent additions.
+     *
+     * @param counter the counter name.
+     * @return the counter value, or 0 if the counter doesn't exist.
+     */
+    long get(String counter);
+}
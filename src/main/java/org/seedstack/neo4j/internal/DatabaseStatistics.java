@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.kernel.impl.api.LogRotationMonitor;
+import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.IdType;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerMonitor;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.seedstack.neo4j.Neo4jStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Samples the statistics of an embedded graph database. Sources are resolved from the database internals once and
+ * {@link #refresh()} only reads counters and file lengths, so it can be called frequently.
+ */
+class DatabaseStatistics implements Neo4jStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseStatistics.class);
+    private final String name;
+    private final File storeDir;
+    private final PageCacheCounters pageCacheCounters;
+    private final IdGeneratorFactory idGeneratorFactory;
+    private final CheckPointerMonitor checkPointerMonitor;
+    private final LogRotationMonitor logRotationMonitor;
+    private volatile long timestamp;
+    private volatile long storeSize;
+    private volatile long nodeStoreSize;
+    private volatile long relationshipStoreSize;
+    private volatile long propertyStoreSize;
+    private volatile long transactionLogSize;
+    private volatile long nodeIdsInUse;
+    private volatile long relationshipIdsInUse;
+    private volatile long propertyIdsInUse;
+    private volatile long pageCachePins;
+    private volatile long pageCacheHits;
+    private volatile long pageCacheFaults;
+    private volatile long pageCacheEvictions;
+    private volatile long pageCacheFlushes;
+    private volatile double pageFaultRatio;
+    private volatile long checkPoints;
+    private volatile long checkPointTotalTime;
+    private volatile long logRotations;
+    private volatile long logRotationTotalTime;
+
+    DatabaseStatistics(String name, GraphDatabaseService graphDatabaseService) {
+        this.name = name;
+        GraphDatabaseAPI graphDatabaseAPI = (GraphDatabaseAPI) graphDatabaseService;
+        DependencyResolver dependencyResolver = graphDatabaseAPI.getDependencyResolver();
+        this.storeDir = new File(graphDatabaseAPI.getStoreDir());
+        this.pageCacheCounters = resolve(dependencyResolver, PageCacheCounters.class);
+        this.idGeneratorFactory = resolve(dependencyResolver, IdGeneratorFactory.class);
+        this.checkPointerMonitor = resolve(dependencyResolver, CheckPointerMonitor.class);
+        this.logRotationMonitor = resolve(dependencyResolver, LogRotationMonitor.class);
+    }
+
+    synchronized void refresh() {
+        refreshFileSizes();
+
+        if (idGeneratorFactory != null) {
+            nodeIdsInUse = idGeneratorFactory.get(IdType.NODE).getNumberOfIdsInUse();
+            relationshipIdsInUse = idGeneratorFactory.get(IdType.RELATIONSHIP).getNumberOfIdsInUse();
+            propertyIdsInUse = idGeneratorFactory.get(IdType.PROPERTY).getNumberOfIdsInUse();
+        }
+
+        if (pageCacheCounters != null) {
+            long pins = pageCacheCounters.pins();
+            long faults = pageCacheCounters.faults();
+            long pinsDelta = pins - pageCachePins;
+            pageFaultRatio = pinsDelta > 0 ? (double) (faults - pageCacheFaults) / pinsDelta : 0;
+            pageCachePins = pins;
+            pageCacheHits = pins - faults;
+            pageCacheFaults = faults;
+            pageCacheEvictions = pageCacheCounters.evictions();
+            pageCacheFlushes = pageCacheCounters.flushes();
+        }
+
+        if (checkPointerMonitor != null) {
+            checkPoints = checkPointerMonitor.numberOfCheckPointEvents();
+            checkPointTotalTime = checkPointerMonitor.checkPointAccumulatedTotalTimeMillis();
+        }
+
+        if (logRotationMonitor != null) {
+            logRotations = logRotationMonitor.numberOfLogRotationEvents();
+            logRotationTotalTime = logRotationMonitor.logRotationAccumulatedTotalTimeMillis();
+        }
+
+        timestamp = System.currentTimeMillis();
+    }
+
+    private void refreshFileSizes() {
+        storeSize = StoreFiles.computeStoreSize(storeDir);
+        transactionLogSize = StoreFiles.computeTransactionLogSize(storeDir);
+        nodeStoreSize = storeFileSize(StoreFactory.NODE_STORE_NAME);
+        relationshipStoreSize = storeFileSize(StoreFactory.RELATIONSHIP_STORE_NAME);
+        propertyStoreSize = storeFileSize(StoreFactory.PROPERTY_STORE_NAME)
+                + storeFileSize(StoreFactory.PROPERTY_STRINGS_STORE_NAME)
+                + storeFileSize(StoreFactory.PROPERTY_ARRAYS_STORE_NAME);
+    }
+
+    private long storeFileSize(String storeName) {
+        return new File(storeDir, MetaDataStore.DEFAULT_NAME + storeName).length();
+    }
+
+    private <T> T resolve(DependencyResolver dependencyResolver, Class<T> someClass) {
+        try {
+            return dependencyResolver.resolveDependency(someClass);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to resolve {} for {} graph database statistics", someClass.getSimpleName(), name, e);
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public long getStoreSize() {
+        return storeSize;
+    }
+
+    @Override
+    public long getNodeStoreSize() {
+        return nodeStoreSize;
+    }
+
+    @Override
+    public long getRelationshipStoreSize() {
+        return relationshipStoreSize;
+    }
+
+    @Override
+    public long getPropertyStoreSize() {
+        return propertyStoreSize;
+    }
+
+    @Override
+    public long getTransactionLogSize() {
+        return transactionLogSize;
+    }
+
+    @Override
+    public long getNodeIdsInUse() {
+        return nodeIdsInUse;
+    }
+
+    @Override
+    public long getRelationshipIdsInUse() {
+        return relationshipIdsInUse;
+    }
+
+    @Override
+    public long getPropertyIdsInUse() {
+        return propertyIdsInUse;
+    }
+
+    @Override
+    public long getPageCacheHits() {
+        return pageCacheHits;
+    }
+
+    @Override
+    public long getPageCacheFaults() {
+        return pageCacheFaults;
+    }
+
+    @Override
+    public long getPageCacheEvictions() {
+        return pageCacheEvictions;
+    }
+
+    @Override
+    public long getPageCacheFlushes() {
+        return pageCacheFlushes;
+    }
+
+    @Override
+    public double getPageFaultRatio() {
+        return pageFaultRatio;
+    }
+
+    @Override
+    public long getCheckPoints() {
+        return checkPoints;
+    }
+
+    @Override
+    public long getCheckPointTotalTime() {
+        return checkPointTotalTime;
+    }
+
+    @Override
+    public long getLogRotations() {
+        return logRotations;
+    }
+
+    @Override
+    public long getLogRotationTotalTime() {
+        return logRotationTotalTime;
+    }
+}
@@ -42,8 +42,17 @@ class GraphDatabaseServiceLink implements TransactionalLink<GraphDatabaseService
         }
     }
 
+    boolean isCurrentTransactionReadOnly() {
+        Holder holder = perThreadObjectContainer.get().peek();
+        return holder != null && holder.readOnly;
+    }
+
     void push(GraphDatabaseService graphDatabaseService, Transaction transaction) {
-        this.perThreadObjectContainer.get().push(new Holder(graphDatabaseService, transaction));
+        push(graphDatabaseService, transaction, false);
+    }
+
+    void push(GraphDatabaseService graphDatabaseService, Transaction transaction, boolean readOnly) {
+        this.perThreadObjectContainer.get().push(new Holder(graphDatabaseService, transaction, readOnly));
     }
 
     void pop() {
@@ -57,10 +66,12 @@ class GraphDatabaseServiceLink implements TransactionalLink<GraphDatabaseService
     private static class Holder {
         private final GraphDatabaseService graphDatabaseService;
         private final Transaction transaction;
+        private final boolean readOnly;
 
-        private Holder(GraphDatabaseService graphDatabaseService, Transaction transaction) {
+        private Holder(GraphDatabaseService graphDatabaseService, Transaction transaction, boolean readOnly) {
             this.graphDatabaseService = graphDatabaseService;
             this.transaction = transaction;
+            this.readOnly = readOnly;
         }
     }
 }
@@ -13,5 +13,9 @@ import org.seedstack.shed.exception.ErrorCode;
 enum Neo4jErrorCode implements ErrorCode {
     ACCESSING_DATABASE_OUTSIDE_TRANSACTION,
     INVALID_DATABASE_SETTING,
+    INVALID_TRANSACTION_QUEUE,
+    READ_REPLICA_NOT_READ_ONLY,
+    TRANSACTION_REJECTED,
+    UNKNOWN_READ_REPLICA,
     UNSUPPORTED_DATABASE_TYPE
 }
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.seedstack.neo4j.Neo4jStatistics;
+import org.seedstack.seed.core.internal.metrics.HealthCheckMethodReplacer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reports the graph databases as unhealthy when their page fault ratio exceeds the configured threshold. Only
+ * instantiated when the health check support is available.
+ */
+class Neo4jHealthCheck implements HealthCheckMethodReplacer {
+    private final Collection<? extends Neo4jStatistics> statistics;
+    private final double maxPageFaultRatio;
+
+    Neo4jHealthCheck(Collection<? extends Neo4jStatistics> statistics, double maxPageFaultRatio) {
+        this.statistics = statistics;
+        this.maxPageFaultRatio = maxPageFaultRatio;
+    }
+
+    @Override
+    public HealthCheck.Result check() {
+        List<String> faulting = new ArrayList<>();
+        for (Neo4jStatistics databaseStatistics : statistics) {
+            if (databaseStatistics.getPageFaultRatio() > maxPageFaultRatio) {
+                faulting.add(String.format(Locale.ROOT, "%s (%.2f%%)", databaseStatistics.getName(), databaseStatistics.getPageFaultRatio() * 100));
+            }
+        }
+
+        if (faulting.isEmpty()) {
+            return HealthCheck.Result.healthy();
+        } else {
+            return HealthCheck.Result.unhealthy(String.format(Locale.ROOT, "Page fault ratio above %.2f%% for graph database(s) %s", maxPageFaultRatio * 100, String.join(", ", faulting)));
+        }
+    }
+}
@@ -7,37 +7,48 @@
  */
 package org.seedstack.neo4j.internal;
 
+import com.google.inject.Key;
 import com.google.inject.PrivateModule;
 import com.google.inject.name.Names;
 import com.google.inject.util.Providers;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.seedstack.neo4j.Neo4jAdmissionMetrics;
+import org.seedstack.neo4j.Neo4jConfig;
 import org.seedstack.neo4j.Neo4jExceptionHandler;
+import org.seedstack.neo4j.Neo4jStripedCounters;
 import org.seedstack.seed.core.internal.transaction.TransactionalProxy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 class Neo4jModule extends PrivateModule {
+    private final GraphDatabaseServiceLink graphDatabaseServiceLink;
     private final Map<String, GraphDatabaseService> graphDatabaseServices;
     private final Map<String, Class<? extends Neo4jExceptionHandler>> exceptionHandlerClasses;
+    private final Map<String, Neo4jConfig.DatabaseConfig> databaseConfigs;
+    private final Map<String, StripedCounters> stripedCounters;
 
-    Neo4jModule(Map<String, GraphDatabaseService> graphDatabaseServices, Map<String, Class<? extends Neo4jExceptionHandler>> exceptionHandlerClasses) {
+    Neo4jModule(GraphDatabaseServiceLink graphDatabaseServiceLink, Map<String, GraphDatabaseService> graphDatabaseServices, Map<String, Class<? extends Neo4jExceptionHandler>> exceptionHandlerClasses, Map<String, Neo4jConfig.DatabaseConfig> databaseConfigs, Map<String, StripedCounters> stripedCounters) {
+        this.graphDatabaseServiceLink = graphDatabaseServiceLink;
         this.graphDatabaseServices = graphDatabaseServices;
         this.exceptionHandlerClasses = exceptionHandlerClasses;
+        this.databaseConfigs = databaseConfigs;
+        this.stripedCounters = stripedCounters;
     }
 
     @Override
     protected void configure() {
-        GraphDatabaseServiceLink graphDatabaseServiceLink = new GraphDatabaseServiceLink();
         bind(GraphDatabaseService.class).toInstance(TransactionalProxy.create(GraphDatabaseService.class, graphDatabaseServiceLink));
 
         for (Map.Entry<String, GraphDatabaseService> entry : graphDatabaseServices.entrySet()) {
-            bindGraphDatabase(entry.getKey(), entry.getValue(), graphDatabaseServiceLink);
+            bindGraphDatabase(entry.getKey(), entry.getValue());
         }
 
         expose(GraphDatabaseService.class);
     }
 
-    private void bindGraphDatabase(String name, GraphDatabaseService graphDatabaseService, GraphDatabaseServiceLink graphDatabaseServiceLink) {
+    private void bindGraphDatabase(String name, GraphDatabaseService graphDatabaseService) {
         Class<? extends Neo4jExceptionHandler> exceptionHandlerClass = exceptionHandlerClasses.get(name);
 
         if (exceptionHandlerClass != null) {
@@ -46,11 +57,39 @@ class Neo4jModule extends PrivateModule {
             bind(Neo4jExceptionHandler.class).annotatedWith(Names.named(name)).toProvider(Providers.<Neo4jExceptionHandler>of(null));
         }
 
-        Neo4jTransactionHandler transactionHandler = new Neo4jTransactionHandler(graphDatabaseServiceLink, graphDatabaseService);
+        Neo4jConfig.DatabaseConfig databaseConfig = databaseConfigs.get(name);
+        TransactionBulkhead transactionBulkhead = new TransactionBulkhead(
+                databaseConfig.getMaxConcurrentTransactions(),
+                databaseConfig.getMaxQueuedTransactions(),
+                databaseConfig.getQueueTimeout()
+        );
+        bind(Neo4jAdmissionMetrics.class).annotatedWith(Names.named(name)).toInstance(transactionBulkhead);
+
+        List<GraphDatabaseService> readReplicas = new ArrayList<>();
+        for (String readReplica : databaseConfig.getReadReplicas()) {
+            readReplicas.add(graphDatabaseServices.get(readReplica));
+        }
+
+        Neo4jTransactionHandler transactionHandler = new Neo4jTransactionHandler(
+                name,
+                graphDatabaseServiceLink,
+                graphDatabaseService,
+                readReplicas,
+                transactionBulkhead,
+                databaseConfig.getTransactionTimeout(),
+                getProvider(Key.get(Neo4jExceptionHandler.class, Names.named(name)))
+        );
         bind(Neo4jTransactionHandler.class).annotatedWith(Names.named(name)).toInstance(transactionHandler);
 
         expose(Neo4jExceptionHandler.class).annotatedWith(Names.named(name));
         expose(Neo4jTransactionHandler.class).annotatedWith(Names.named(name));
+        expose(Neo4jAdmissionMetrics.class).annotatedWith(Names.named(name));
+
+        StripedCounters counters = stripedCounters.get(name);
+        if (counters != null) {
+            bind(Neo4jStripedCounters.class).annotatedWith(Names.named(name)).toInstance(counters);
+            expose(Neo4jStripedCounters.class).annotatedWith(Names.named(name));
+        }
     }
 
 }
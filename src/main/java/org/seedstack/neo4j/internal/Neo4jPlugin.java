@@ -9,6 +9,7 @@ package org.seedstack.neo4j.internal;
 
 import com.google.common.base.Strings;
 import io.nuun.kernel.api.plugin.InitState;
+import io.nuun.kernel.api.plugin.context.Context;
 import io.nuun.kernel.api.plugin.context.InitContext;
 import io.nuun.kernel.api.plugin.request.ClasspathScanRequest;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -18,28 +19,61 @@ import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.seedstack.neo4j.Neo4jConfig;
 import org.seedstack.neo4j.Neo4jExceptionHandler;
+import org.seedstack.neo4j.Neo4jStatistics;
 import org.seedstack.seed.SeedException;
 import org.seedstack.seed.core.internal.AbstractSeedPlugin;
+import org.seedstack.seed.core.internal.dependency.DependencyPlugin;
+import org.seedstack.seed.core.internal.metrics.HealthCheckProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Neo4jPlugin extends AbstractSeedPlugin {
     private static final String EXCEPTION_DB_NAME = "dbName";
+    private static final String PAGECACHE_MEMORY_SETTING = "pagecache_memory";
+    private static final String READ_ONLY_SETTING = "read_only";
+    private static final long MAINTENANCE_SHUTDOWN_TIMEOUT = 10;
     private static final Logger LOGGER = LoggerFactory.getLogger(Neo4jPlugin.class);
     private final Map<String, GraphDatabaseService> graphDatabaseServices = new HashMap<String, GraphDatabaseService>();
     private final Map<String, Class<? extends Neo4jExceptionHandler>> exceptionHandlerClasses = new HashMap<String, Class<? extends Neo4jExceptionHandler>>();
+    private final Map<String, Neo4jConfig.DatabaseConfig> databaseConfigs = new HashMap<String, Neo4jConfig.DatabaseConfig>();
+    private final Map<String, DatabaseStatistics> databaseStatistics = new HashMap<String, DatabaseStatistics>();
+    private final Map<String, StripedCounters> stripedCounters = new HashMap<String, StripedCounters>();
+    private final GraphDatabaseServiceLink graphDatabaseServiceLink = new GraphDatabaseServiceLink();
+    private final List<ObjectName> registeredMBeans = new ArrayList<ObjectName>();
+    private Neo4jConfig.DiagnosticsConfig diagnosticsConfig;
+    private ScheduledExecutorService scheduler;
 
     @Override
     public String name() {
         return "neo4j";
     }
 
+    @Override
+    protected Collection<Class<?>> dependencies() {
+        return Collections.singletonList(DependencyPlugin.class);
+    }
+
     @Override
     public Collection<ClasspathScanRequest> classpathScanRequests() {
         return classpathScanRequestBuilder().descendentTypeOf(Neo4jExceptionHandler.class).build();
@@ -54,17 +88,36 @@ public class Neo4jPlugin extends AbstractSeedPlugin {
             LOGGER.info("No Neo4j graph database configured, Neo4j support disabled");
             return InitState.INITIALIZED;
         }
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(neo4jConfig.getMemory());
+        Map<String, File> directories = new HashMap<String, File>();
         for (Map.Entry<String, Neo4jConfig.DatabaseConfig> dbEntry : neo4jConfig.getDatabases().entrySet()) {
             String dbName = dbEntry.getKey();
             Neo4jConfig.DatabaseConfig dbConfig = dbEntry.getValue();
+            databaseConfigs.put(dbName, dbConfig);
 
             Class<? extends Neo4jExceptionHandler> exceptionHandler = dbConfig.getExceptionHandler();
             if (exceptionHandler != null) {
                 exceptionHandlerClasses.put(dbName, exceptionHandler);
             }
 
+            if (dbConfig.getMaxQueuedTransactions() > 0 && dbConfig.getQueueTimeout() == 0) {
+                throw SeedException.createNew(Neo4jErrorCode.INVALID_TRANSACTION_QUEUE)
+                        .put(EXCEPTION_DB_NAME, dbName)
+                        .put("maxQueuedTransactions", dbConfig.getMaxQueuedTransactions());
+            }
+
             if (dbConfig.getType() == Neo4jConfig.DatabaseConfig.DatabaseType.EMBEDDED) {
-                graphDatabaseServices.put(dbName, createEmbeddedDatabase(dbName, dbConfig));
+                File directory = resolveDirectory(dbName, dbConfig);
+                directories.put(dbName, directory);
+
+                Long explicitPageCacheSize = getExplicitPageCacheSize(dbName, dbConfig);
+                if (explicitPageCacheSize != null) {
+                    pageCacheSizer.addExplicitlySizedDatabase(explicitPageCacheSize);
+                } else if (dbConfig.isPageCacheAutoSizing()) {
+                    pageCacheSizer.addAutoSizedDatabase(dbName, StoreFiles.computeStoreSize(directory));
+                } else {
+                    pageCacheSizer.addDefaultSizedDatabase();
+                }
             } else {
                 throw SeedException.createNew(Neo4jErrorCode.UNSUPPORTED_DATABASE_TYPE)
                         .put(EXCEPTION_DB_NAME, dbEntry)
@@ -72,20 +125,85 @@ public class Neo4jPlugin extends AbstractSeedPlugin {
             }
         }
 
+        for (Map.Entry<String, Neo4jConfig.DatabaseConfig> dbEntry : databaseConfigs.entrySet()) {
+            for (String readReplica : dbEntry.getValue().getReadReplicas()) {
+                if (!databaseConfigs.containsKey(readReplica)) {
+                    throw SeedException.createNew(Neo4jErrorCode.UNKNOWN_READ_REPLICA)
+                            .put(EXCEPTION_DB_NAME, dbEntry.getKey())
+                            .put("readReplica", readReplica);
+                }
+                if (!"true".equalsIgnoreCase(getSettingValue(readReplica, databaseConfigs.get(readReplica), READ_ONLY_SETTING, GraphDatabaseSettings.read_only))) {
+                    throw SeedException.createNew(Neo4jErrorCode.READ_REPLICA_NOT_READ_ONLY)
+                            .put(EXCEPTION_DB_NAME, dbEntry.getKey())
+                            .put("readReplica", readReplica);
+                }
+            }
+        }
+
+        Map<String, Long> pageCacheSizes = pageCacheSizer.computePageCacheSizes();
+        for (Map.Entry<String, File> directoryEntry : directories.entrySet()) {
+            String dbName = directoryEntry.getKey();
+            GraphDatabaseService graphDatabaseService = createEmbeddedDatabase(dbName, databaseConfigs.get(dbName), directoryEntry.getValue(), pageCacheSizes.get(dbName));
+            graphDatabaseServices.put(dbName, graphDatabaseService);
+            databaseStatistics.put(dbName, new DatabaseStatistics(dbName, graphDatabaseService));
+
+            Integer counterStripes = databaseConfigs.get(dbName).getCounterStripes();
+            if (counterStripes != null) {
+                StripedCounters counters = new StripedCounters(dbName, graphDatabaseServiceLink, graphDatabaseService, counterStripes);
+                counters.createSchema();
+                stripedCounters.put(dbName, counters);
+            }
+        }
+
         if (!Strings.isNullOrEmpty(neo4jConfig.getDefaultDatabase())) {
             Neo4jTransactionMetadataResolver.defaultDb = neo4jConfig.getDefaultDatabase();
         }
 
+        diagnosticsConfig = neo4jConfig.getDiagnostics();
+        Optional<HealthCheckProvider> healthCheckProvider = initContext.dependency(DependencyPlugin.class).getDependency(HealthCheckProvider.class);
+        if (healthCheckProvider.isPresent()) {
+            healthCheckProvider.get().register("neo4j", new Neo4jHealthCheck(databaseStatistics.values(), diagnosticsConfig.getMaxPageFaultRatio()));
+        }
+
         return InitState.INITIALIZED;
     }
 
+    @Override
+    public void start(Context context) {
+        if (graphDatabaseServices.isEmpty()) {
+            return;
+        }
+
+        if (diagnosticsConfig.isJmxEnabled()) {
+            registerMBeans();
+        }
+
+        refreshStatistics();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "neo4j-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshStatistics, diagnosticsConfig.getRefreshInterval(), diagnosticsConfig.getRefreshInterval(), TimeUnit.MILLISECONDS);
+        for (Map.Entry<String, StripedCounters> stripedCountersEntry : stripedCounters.entrySet()) {
+            long compactionInterval = databaseConfigs.get(stripedCountersEntry.getKey()).getCounterCompactionInterval();
+            scheduler.scheduleWithFixedDelay(() -> compactCounters(stripedCountersEntry.getKey(), stripedCountersEntry.getValue()), compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
     @Override
     public Object nativeUnitModule() {
-        return new Neo4jModule(graphDatabaseServices, exceptionHandlerClasses);
+        return new Neo4jModule(graphDatabaseServiceLink, graphDatabaseServices, exceptionHandlerClasses, databaseConfigs, stripedCounters);
     }
 
     @Override
     public void stop() {
+        if (scheduler != null) {
+            shutdownScheduler();
+        }
+        unregisterMBeans();
+        Neo4jTransactionMetadataResolver.clearPlans();
+
         for (Map.Entry<String, GraphDatabaseService> graphDatabaseServiceEntry : graphDatabaseServices.entrySet()) {
             LOGGER.info("Shutting down {} graph database", graphDatabaseServiceEntry.getKey());
             try {
@@ -96,16 +214,130 @@ public class Neo4jPlugin extends AbstractSeedPlugin {
         }
     }
 
-    private GraphDatabaseService createEmbeddedDatabase(String name, Neo4jConfig.DatabaseConfig dbConfig) {
+    private void shutdownScheduler() {
+        // running maintenance tasks must complete before the databases are shut down
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(MAINTENANCE_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                LOGGER.warn("Neo4j maintenance tasks still running after {} seconds, interrupting them", MAINTENANCE_SHUTDOWN_TIMEOUT);
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the latest statistics of the specified graph database.
+     *
+     * @param name the graph database name.
+     * @return the statistics or null if no such graph database is configured.
+     */
+    public Neo4jStatistics getStatistics(String name) {
+        return databaseStatistics.get(name);
+    }
+
+    /**
+     * Returns the latest statistics of all configured graph databases.
+     *
+     * @return the statistics, keyed by graph database name.
+     */
+    public Map<String, Neo4jStatistics> getStatistics() {
+        return Collections.unmodifiableMap(databaseStatistics);
+    }
+
+    private void refreshStatistics() {
+        for (DatabaseStatistics statistics : databaseStatistics.values()) {
+            try {
+                statistics.refresh();
+            } catch (Exception e) {
+                LOGGER.warn(String.format("Unable to refresh %s graph database statistics", statistics.getName()), e);
+            }
+        }
+    }
+
+    private void compactCounters(String name, StripedCounters counters) {
+        try {
+            counters.compact();
+        } catch (Exception e) {
+            LOGGER.warn(String.format("Unable to compact %s graph database striped counters", name), e);
+        }
+    }
+
+    private void registerMBeans() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (DatabaseStatistics statistics : databaseStatistics.values()) {
+            try {
+                ObjectName objectName = new ObjectName("org.seedstack.neo4j", createObjectNameProperties(statistics.getName()));
+                mBeanServer.registerMBean(statistics, objectName);
+                registeredMBeans.add(objectName);
+            } catch (JMException e) {
+                LOGGER.warn(String.format("Unable to register %s graph database statistics in JMX", statistics.getName()), e);
+            }
+        }
+    }
+
+    private Hashtable<String, String> createObjectNameProperties(String name) {
+        Hashtable<String, String> properties = new Hashtable<String, String>();
+        properties.put("type", "Statistics");
+        properties.put("name", ObjectName.quote(name));
+        return properties;
+    }
+
+    private void unregisterMBeans() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registeredMBeans) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOGGER.warn(String.format("Unable to unregister %s from JMX", objectName), e);
+            }
+        }
+        registeredMBeans.clear();
+    }
+
+    private File resolveDirectory(String name, Neo4jConfig.DatabaseConfig dbConfig) {
         String path = dbConfig.getPath();
-        File directory;
 
         if (path == null || path.isEmpty()) {
-            directory = getApplication().getStorageLocation(String.format("neo4j/%s", name));
+            return getApplication().getStorageLocation(String.format("neo4j/%s", name));
         } else {
-            directory = new File(path);
+            return new File(path);
+        }
+    }
+
+    private Long getExplicitPageCacheSize(String name, Neo4jConfig.DatabaseConfig dbConfig) {
+        String value = getSettingValue(name, dbConfig, PAGECACHE_MEMORY_SETTING, GraphDatabaseSettings.pagecache_memory);
+        if (value == null) {
+            return null;
         }
 
+        try {
+            return GraphDatabaseSettings.pagecache_memory.apply(Collections.singletonMap(GraphDatabaseSettings.pagecache_memory.name(), value)::get);
+        } catch (Exception e) {
+            throw SeedException.wrap(e, Neo4jErrorCode.INVALID_DATABASE_SETTING).put(EXCEPTION_DB_NAME, name).put("setting", PAGECACHE_MEMORY_SETTING);
+        }
+    }
+
+    private String getSettingValue(String name, Neo4jConfig.DatabaseConfig dbConfig, String settingKey, Setting<?> setting) {
+        String value = dbConfig.getSettings().get(settingKey);
+
+        URL propertiesURL = dbConfig.getPropertiesURL();
+        if (value == null && propertiesURL != null) {
+            Properties properties = new Properties();
+            try (InputStream inputStream = propertiesURL.openStream()) {
+                properties.load(inputStream);
+            } catch (IOException e) {
+                throw SeedException.wrap(e, Neo4jErrorCode.INVALID_DATABASE_SETTING).put(EXCEPTION_DB_NAME, name).put("setting", setting.name());
+            }
+            value = properties.getProperty(setting.name());
+        }
+
+        return value == null ? null : value.trim();
+    }
+
+    private GraphDatabaseService createEmbeddedDatabase(String name, Neo4jConfig.DatabaseConfig dbConfig, File directory, Long pageCacheSize) {
         GraphDatabaseBuilder databaseBuilder = new GraphDatabaseFactory().newEmbeddedDatabaseBuilder(directory);
 
         URL propertiesURL = dbConfig.getPropertiesURL();
@@ -122,6 +354,10 @@ public class Neo4jPlugin extends AbstractSeedPlugin {
             }
         }
 
+        if (pageCacheSize != null) {
+            databaseBuilder.setConfig(GraphDatabaseSettings.pagecache_memory, String.valueOf(pageCacheSize));
+        }
+
         LOGGER.info("Opening {} embedded graph database at {}", name, directory.getAbsoluteFile().toString());
 
         return databaseBuilder.newGraphDatabase();
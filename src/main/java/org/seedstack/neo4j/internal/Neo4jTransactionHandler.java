@@ -9,28 +9,66 @@ package org.seedstack.neo4j.internal;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.security.AccessMode;
+import org.neo4j.kernel.api.security.SecurityContext;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.seedstack.neo4j.Neo4jExceptionHandler;
+import org.seedstack.seed.SeedException;
 import org.seedstack.seed.transaction.spi.TransactionHandler;
 import org.seedstack.seed.transaction.spi.TransactionMetadata;
 
+import javax.inject.Provider;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 class Neo4jTransactionHandler implements TransactionHandler<Transaction> {
+    private static final SecurityContext READ_ONLY_SECURITY_CONTEXT = SecurityContext.AUTH_DISABLED.withMode(AccessMode.Static.READ);
+    private final ThreadLocal<TransactionMetadata> currentTransactionMetadata = new ThreadLocal<>();
+    private final AtomicInteger nextReadReplica = new AtomicInteger();
+    private final String name;
     private final GraphDatabaseServiceLink graphDatabaseServiceLink;
     private final GraphDatabaseService graphDatabaseService;
+    private final TransactionBulkhead transactionBulkhead;
+    private final Long transactionTimeout;
+    private final Provider<Neo4jExceptionHandler> exceptionHandlerProvider;
+    private final List<GraphDatabaseService> readReplicas;
 
-    Neo4jTransactionHandler(GraphDatabaseServiceLink graphDatabaseServiceLink, GraphDatabaseService graphDatabaseService) {
+    Neo4jTransactionHandler(String name, GraphDatabaseServiceLink graphDatabaseServiceLink, GraphDatabaseService graphDatabaseService, List<GraphDatabaseService> readReplicas, TransactionBulkhead transactionBulkhead, Long transactionTimeout, Provider<Neo4jExceptionHandler> exceptionHandlerProvider) {
+        this.name = name;
         this.graphDatabaseServiceLink = graphDatabaseServiceLink;
         this.graphDatabaseService = graphDatabaseService;
+        this.readReplicas = readReplicas;
+        this.transactionBulkhead = transactionBulkhead;
+        this.transactionTimeout = transactionTimeout;
+        this.exceptionHandlerProvider = exceptionHandlerProvider;
     }
 
     @Override
     public void doInitialize(TransactionMetadata transactionMetadata) {
-        // nothing to do
+        this.currentTransactionMetadata.set(transactionMetadata);
     }
 
     @Override
     public Transaction doCreateTransaction() {
-        Transaction transaction = this.graphDatabaseService.beginTx();
-        this.graphDatabaseServiceLink.push(graphDatabaseService, transaction);
+        if (!this.transactionBulkhead.acquire()) {
+            throw rejectTransaction();
+        }
+
+        TransactionMetadata transactionMetadata = this.currentTransactionMetadata.get();
+        boolean readOnly = transactionMetadata != null && Boolean.TRUE.equals(transactionMetadata.isReadOnly());
+        GraphDatabaseService target = readOnly ? selectReadTarget() : this.graphDatabaseService;
+        Transaction transaction;
+        try {
+            transaction = readOnly ? beginReadOnlyTransaction(target) : beginTransaction(target);
+        } catch (RuntimeException e) {
+            this.transactionBulkhead.release();
+            throw e;
+        }
+
+        this.graphDatabaseServiceLink.push(target, transaction, readOnly);
         return transaction;
     }
 
@@ -46,7 +84,9 @@ class Neo4jTransactionHandler implements TransactionHandler<Transaction> {
 
     @Override
     public void doCommitTransaction(Transaction currentTransaction) {
-        currentTransaction.success();
+        if (!this.graphDatabaseServiceLink.isCurrentTransactionReadOnly()) {
+            currentTransaction.success();
+        }
     }
 
     @Override
@@ -61,16 +101,60 @@ class Neo4jTransactionHandler implements TransactionHandler<Transaction> {
 
     @Override
     public void doReleaseTransaction(Transaction currentTransaction) {
-        currentTransaction.close();
-        this.graphDatabaseServiceLink.pop();
+        try {
+            currentTransaction.close();
+        } finally {
+            this.graphDatabaseServiceLink.pop();
+            this.transactionBulkhead.release();
+        }
     }
 
     @Override
     public void doCleanup() {
+        this.currentTransactionMetadata.remove();
     }
 
     @Override
     public Transaction getCurrentTransaction() {
         return this.graphDatabaseServiceLink.getCurrentTransaction();
     }
+
+    private GraphDatabaseService selectReadTarget() {
+        if (this.readReplicas.isEmpty()) {
+            return this.graphDatabaseService;
+        }
+        return this.readReplicas.get(Math.floorMod(this.nextReadReplica.getAndIncrement(), this.readReplicas.size()));
+    }
+
+    private Transaction beginTransaction(GraphDatabaseService target) {
+        if (this.transactionTimeout != null) {
+            return target.beginTx(this.transactionTimeout, TimeUnit.MILLISECONDS);
+        } else {
+            return target.beginTx();
+        }
+    }
+
+    private Transaction beginReadOnlyTransaction(GraphDatabaseService target) {
+        GraphDatabaseAPI graphDatabaseAPI = (GraphDatabaseAPI) target;
+        if (this.transactionTimeout != null) {
+            return graphDatabaseAPI.beginTransaction(KernelTransaction.Type.explicit, READ_ONLY_SECURITY_CONTEXT, this.transactionTimeout, TimeUnit.MILLISECONDS);
+        } else {
+            return graphDatabaseAPI.beginTransaction(KernelTransaction.Type.explicit, READ_ONLY_SECURITY_CONTEXT);
+        }
+    }
+
+    private SeedException rejectTransaction() {
+        SeedException seedException = SeedException.createNew(Neo4jErrorCode.TRANSACTION_REJECTED)
+                .put("dbName", name)
+                .put("activeTransactions", transactionBulkhead.getActiveTransactions())
+                .put("queuedTransactions", transactionBulkhead.getQueuedTransactions());
+
+        // the handler is only notified: no transaction exists, so a rejection cannot be suppressed
+        Neo4jExceptionHandler exceptionHandler = exceptionHandlerProvider.get();
+        if (exceptionHandler != null) {
+            exceptionHandler.handleException(seedException, currentTransactionMetadata.get(), null);
+        }
+
+        return seedException;
+    }
 }
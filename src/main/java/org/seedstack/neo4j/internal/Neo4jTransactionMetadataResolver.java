@@ -9,31 +9,62 @@ package org.seedstack.neo4j.internal;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.seedstack.neo4j.Neo4jDb;
-import org.seedstack.neo4j.Neo4jExceptionHandler;
 import org.seedstack.seed.transaction.spi.TransactionMetadata;
 import org.seedstack.seed.transaction.spi.TransactionMetadataResolver;
 
+import java.lang.reflect.Method;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This {@link TransactionMetadataResolver} resolves metadata for transactions marked
- * with {@link Neo4jDb}.
+ * with {@link Neo4jDb}. Resolution is done once per method, subsequent invocations reuse the resulting
+ * {@link Neo4jTransactionPlan}.
  */
 class Neo4jTransactionMetadataResolver implements TransactionMetadataResolver {
+    private static final ConcurrentMap<Method, Neo4jTransactionPlan> plans = new ConcurrentHashMap<>();
+    private static volatile Neo4jTransactionPlan defaultPlan;
     static String defaultDb;
 
     @Override
     public TransactionMetadata resolve(MethodInvocation methodInvocation, TransactionMetadata defaults) {
-        Optional<Neo4jDb> neo4jDb = Neo4jResolver.INSTANCE.apply(methodInvocation.getMethod());
-
-        if (neo4jDb.isPresent() || Neo4jTransactionHandler.class.equals(defaults.getHandler())) {
-            TransactionMetadata result = new TransactionMetadata();
-            result.setHandler(Neo4jTransactionHandler.class);
-            result.setExceptionHandler(Neo4jExceptionHandler.class);
-            result.setResource(neo4jDb.isPresent() ? neo4jDb.get().value() : defaultDb);
-            return result;
+        Neo4jTransactionPlan plan = getPlan(methodInvocation.getMethod());
+
+        if (plan != Neo4jTransactionPlan.NONE) {
+            return plan.getTransactionMetadata();
+        } else if (Neo4jTransactionHandler.class.equals(defaults.getHandler())) {
+            return getDefaultPlan().getTransactionMetadata();
         }
 
         return null;
     }
-}
\ No newline at end of file
+
+    static void clearPlans() {
+        plans.clear();
+        defaultPlan = null;
+    }
+
+    private Neo4jTransactionPlan getPlan(Method method) {
+        Neo4jTransactionPlan plan = plans.get(method);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(method, this::createPlan);
+        }
+        return plan;
+    }
+
+    private Neo4jTransactionPlan createPlan(Method method) {
+        Optional<Neo4jDb> neo4jDb = Neo4jResolver.INSTANCE.apply(method);
+        return neo4jDb.isPresent() ? new Neo4jTransactionPlan(neo4jDb.get().value(), neo4jDb.get().readOnly()) : Neo4jTransactionPlan.NONE;
+    }
+
+    private Neo4jTransactionPlan getDefaultPlan() {
+        Neo4jTransactionPlan plan = defaultPlan;
+        String db = defaultDb;
+        if (plan == null || plan.getDatabase() != db) {
+            plan = new Neo4jTransactionPlan(db, false);
+            defaultPlan = plan;
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.seedstack.neo4j.Neo4jExceptionHandler;
+import org.seedstack.seed.transaction.spi.TransactionMetadata;
+
+/**
+ * Transaction metadata resolved once for a method and reused for all its invocations. The metadata instance is shared
+ * and must only be read (it is merged by copy into the transaction manager own metadata).
+ */
+final class Neo4jTransactionPlan {
+    /**
+     * Plan of methods without {@link org.seedstack.neo4j.Neo4jDb} annotation.
+     */
+    static final Neo4jTransactionPlan NONE = new Neo4jTransactionPlan(null, false);
+    private final String database;
+    private final TransactionMetadata transactionMetadata;
+
+    Neo4jTransactionPlan(String database, boolean readOnly) {
+        this.database = database;
+        this.transactionMetadata = new TransactionMetadata();
+        this.transactionMetadata.setHandler(Neo4jTransactionHandler.class);
+        this.transactionMetadata.setExceptionHandler(Neo4jExceptionHandler.class);
+        this.transactionMetadata.setResource(database);
+        if (readOnly) {
+            this.transactionMetadata.setReadOnly(true);
+        }
+    }
+
+    String getDatabase() {
+        return database;
+    }
+
+    TransactionMetadata getTransactionMetadata() {
+        return transactionMetadata;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.neo4j.kernel.impl.pagecache.ConfiguringPageCacheFactory;
+import org.seedstack.neo4j.Neo4jConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the page cache size of embedded databases requesting auto-sizing. The memory left for their page caches is
+ * the physical memory minus the maximum heap, the reserved memory, the explicitly sized page caches and the Neo4j
+ * default page cache of each other database. It is entirely shared between auto-sized databases in proportion to their
+ * on-disk store size, so a database always gets at least its store size with growth as long as the budget allows.
+ */
+class PageCacheSizer {
+    static final long MIN_PAGE_CACHE_SIZE = 8L * 1024L * 1024L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageCacheSizer.class);
+    private final Neo4jConfig.MemoryConfig memoryConfig;
+    private final long physicalMemory;
+    private final long maxHeap;
+    private final long defaultPageCacheSize;
+    private final Map<String, Long> storeSizes = new HashMap<>();
+    private long otherPageCacheSize = 0;
+
+    PageCacheSizer(Neo4jConfig.MemoryConfig memoryConfig) {
+        this(memoryConfig, getPhysicalMemory(), Runtime.getRuntime().maxMemory(), ConfiguringPageCacheFactory.defaultHeuristicPageCacheMemory());
+    }
+
+    PageCacheSizer(Neo4jConfig.MemoryConfig memoryConfig, long physicalMemory, long maxHeap, long defaultPageCacheSize) {
+        this.memoryConfig = memoryConfig;
+        this.physicalMemory = physicalMemory;
+        this.maxHeap = maxHeap;
+        this.defaultPageCacheSize = defaultPageCacheSize;
+    }
+
+    void addAutoSizedDatabase(String name, long storeSize) {
+        storeSizes.put(name, storeSize);
+    }
+
+    void addDefaultSizedDatabase() {
+        otherPageCacheSize += defaultPageCacheSize;
+    }
+
+    void addExplicitlySizedDatabase(long pageCacheSize) {
+        otherPageCacheSize += pageCacheSize;
+    }
+
+    Map<String, Long> computePageCacheSizes() {
+        Map<String, Long> pageCacheSizes = new HashMap<>();
+        if (storeSizes.isEmpty()) {
+            return pageCacheSizes;
+        }
+
+        if (physicalMemory <= 0) {
+            LOGGER.warn("Unable to determine physical memory size, Neo4j page cache auto-sizing disabled");
+            return pageCacheSizes;
+        }
+
+        long budget = physicalMemory - maxHeap - memoryConfig.getReservedMemory() - otherPageCacheSize;
+        if (budget < MIN_PAGE_CACHE_SIZE * storeSizes.size()) {
+            LOGGER.warn("Neo4j page cache budget exhausted ({} bytes for {} database(s)), using the minimum page cache size of {} bytes: reduce the heap, the reserved memory or the page cache sizes of other databases",
+                    budget, storeSizes.size(), MIN_PAGE_CACHE_SIZE);
+        }
+
+        Map<String, Long> demands = new HashMap<>();
+        long totalDemand = 0;
+        for (Map.Entry<String, Long> storeSizeEntry : storeSizes.entrySet()) {
+            long demand = Math.max(MIN_PAGE_CACHE_SIZE, (long) (storeSizeEntry.getValue() * memoryConfig.getStoreGrowthFactor()));
+            demands.put(storeSizeEntry.getKey(), demand);
+            totalDemand += demand;
+        }
+
+        for (Map.Entry<String, Long> demandEntry : demands.entrySet()) {
+            long pageCacheSize = Math.max(MIN_PAGE_CACHE_SIZE, (long) ((double) Math.max(budget, 0) * demandEntry.getValue() / totalDemand));
+            pageCacheSizes.put(demandEntry.getKey(), pageCacheSize);
+            LOGGER.info("Auto-sized page cache of {} graph database to {} bytes (store size: {} bytes, physical memory: {} bytes, max heap: {} bytes, page cache budget: {} bytes)",
+                    demandEntry.getKey(), pageCacheSize, storeSizes.get(demandEntry.getKey()), physicalMemory, maxHeap, budget);
+        }
+
+        return pageCacheSizes;
+    }
+
+    private static long getPhysicalMemory() {
+        OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystemMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystemMXBean).getTotalPhysicalMemorySize();
+        } else {
+            return -1;
+        }
+    }
+}
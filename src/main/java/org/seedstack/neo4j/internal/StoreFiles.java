@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile;
+
+import java.io.File;
+
+/**
+ * Computes on-disk sizes of an embedded graph database directory.
+ */
+final class StoreFiles {
+    private StoreFiles() {
+        // no instantiation allowed
+    }
+
+    /**
+     * @param storeDir the database directory.
+     * @return the size in bytes of all files of the directory and its subdirectories, transaction logs excluded.
+     */
+    static long computeStoreSize(File storeDir) {
+        long size = 0;
+        File[] files = storeDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    size += computeDirectorySize(file);
+                } else if (!isTransactionLog(file)) {
+                    size += file.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @param storeDir the database directory.
+     * @return the size in bytes of the transaction log files.
+     */
+    static long computeTransactionLogSize(File storeDir) {
+        long size = 0;
+        File[] files = storeDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile() && isTransactionLog(file)) {
+                    size += file.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long computeDirectorySize(File directory) {
+        long size = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.isDirectory() ? computeDirectorySize(file) : file.length();
+            }
+        }
+        return size;
+    }
+
+    private static boolean isTransactionLog(File file) {
+        return file.getName().startsWith(PhysicalLogFile.DEFAULT_NAME);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.ConstraintDefinition;
+import org.seedstack.neo4j.Neo4jStripedCounters;
+import org.seedstack.seed.SeedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Striped counters stored as nodes labeled {@code StripedCounter}. Each node holds the counter name and its stripe
+ * index (-1 for the base node) in separate properties. Its unique key is the stripe index followed by the counter name,
+ * which can't be ambiguous whatever the counter name, and a uniqueness constraint on it guarantees that concurrent
+ * creations of the same node are serialized.
+ * <p>
+ * The base node also acts as the lock of the whole counter and is always locked before any stripe. {@link #add(String,
+ * long)} and {@link #get(String)} read-lock it, so they never wait on each other, and {@link #compact()} write-locks it
+ * before folding the stripes, so a read never sees a stripe already folded into the base. Since no transaction can
+ * hold a stripe lock without holding the base lock first, compaction can't deadlock with counter users.
+ */
+class StripedCounters implements Neo4jStripedCounters {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StripedCounters.class);
+    private static final Label LABEL = Label.label("StripedCounter");
+    private static final String KEY = "key";
+    private static final String COUNTER = "counter";
+    private static final String STRIPE = "stripe";
+    private static final String VALUE = "value";
+    private static final int BASE_STRIPE = -1;
+    private static final String MERGE_QUERY = "MERGE (c:StripedCounter {key: $key}) ON CREATE SET c.counter = $counter, c.stripe = $stripe, c.value = 0 RETURN c";
+    private final String name;
+    private final GraphDatabaseServiceLink graphDatabaseServiceLink;
+    private final GraphDatabaseService graphDatabaseService;
+    private final int stripes;
+
+    StripedCounters(String name, GraphDatabaseServiceLink graphDatabaseServiceLink, GraphDatabaseService graphDatabaseService, int stripes) {
+        this.name = name;
+        this.graphDatabaseServiceLink = graphDatabaseServiceLink;
+        this.graphDatabaseService = graphDatabaseService;
+        this.stripes = stripes;
+    }
+
+    @Override
+    public void add(String counter, long delta) {
+        Transaction transaction = getCurrentTransaction();
+        transaction.acquireReadLock(findOrCreateNode(counter, BASE_STRIPE));
+        Node stripe = findOrCreateNode(counter, (int) (Thread.currentThread().getId() % stripes));
+        transaction.acquireWriteLock(stripe);
+        stripe.setProperty(VALUE, (long) stripe.getProperty(VALUE) + delta);
+    }
+
+    @Override
+    public long get(String counter) {
+        Transaction transaction = getCurrentTransaction();
+        Node base = graphDatabaseService.findNode(LABEL, KEY, nodeKey(counter, BASE_STRIPE));
+        if (base == null) {
+            return 0;
+        }
+        transaction.acquireReadLock(base);
+        long value = (long) base.getProperty(VALUE);
+        for (int i = 0; i < stripes; i++) {
+            value += readValue(counter, i);
+        }
+        return value;
+    }
+
+    /**
+     * Creates the uniqueness constraint on counter keys if it doesn't exist yet.
+     */
+    void createSchema() {
+        try (Transaction transaction = graphDatabaseService.beginTx()) {
+            for (ConstraintDefinition constraintDefinition : graphDatabaseService.schema().getConstraints(LABEL)) {
+                for (String propertyKey : constraintDefinition.getPropertyKeys()) {
+                    if (KEY.equals(propertyKey)) {
+                        return;
+                    }
+                }
+            }
+            graphDatabaseService.schema().constraintFor(LABEL).assertPropertyIsUnique(KEY).create();
+            transaction.success();
+        }
+    }
+
+    /**
+     * Folds the stripes of each counter back into its base node, one short transaction per counter.
+     */
+    void compact() {
+        Set<String> counters = new HashSet<>();
+        try (Transaction transaction = graphDatabaseService.beginTx(); ResourceIterator<Node> nodes = graphDatabaseService.findNodes(LABEL)) {
+            while (nodes.hasNext()) {
+                Node node = nodes.next();
+                if (((Number) node.getProperty(STRIPE)).intValue() != BASE_STRIPE && (long) node.getProperty(VALUE) != 0) {
+                    counters.add((String) node.getProperty(COUNTER));
+                }
+            }
+            transaction.success();
+        }
+
+        for (String counter : counters) {
+            try {
+                compact(counter);
+            } catch (Exception e) {
+                LOGGER.debug("Unable to compact striped counter {} of {} graph database, will retry later", counter, name, e);
+            }
+        }
+    }
+
+    private void compact(String counter) {
+        try (Transaction transaction = graphDatabaseService.beginTx()) {
+            Node base = findOrCreateNode(counter, BASE_STRIPE);
+            transaction.acquireWriteLock(base);
+            Map<Node, Long> stripeValues = new HashMap<>();
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                Node stripe = graphDatabaseService.findNode(LABEL, KEY, nodeKey(counter, i));
+                if (stripe != null) {
+                    transaction.acquireWriteLock(stripe);
+                    long value = (long) stripe.getProperty(VALUE);
+                    if (value != 0) {
+                        stripeValues.put(stripe, value);
+                        total += value;
+                    }
+                }
+            }
+
+            if (!stripeValues.isEmpty()) {
+                base.setProperty(VALUE, (long) base.getProperty(VALUE) + total);
+                for (Node stripe : stripeValues.keySet()) {
+                    stripe.setProperty(VALUE, 0L);
+                }
+            }
+
+            transaction.success();
+        }
+    }
+
+    private Transaction getCurrentTransaction() {
+        Transaction transaction = graphDatabaseServiceLink.getCurrentTransaction();
+        if (transaction == null || graphDatabaseServiceLink.get() != graphDatabaseService) {
+            throw SeedException.createNew(Neo4jErrorCode.ACCESSING_DATABASE_OUTSIDE_TRANSACTION).put("dbName", name);
+        }
+        return transaction;
+    }
+
+    private Node findOrCreateNode(String counter, int stripe) {
+        String key = nodeKey(counter, stripe);
+        Node node = graphDatabaseService.findNode(LABEL, KEY, key);
+        if (node == null) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put(KEY, key);
+            parameters.put(COUNTER, counter);
+            parameters.put(STRIPE, stripe);
+            try (ResourceIterator<Node> result = graphDatabaseService.execute(MERGE_QUERY, parameters).columnAs("c")) {
+                node = result.next();
+            }
+        }
+        return node;
+    }
+
+    private long readValue(String counter, int stripe) {
+        Node node = graphDatabaseService.findNode(LABEL, KEY, nodeKey(counter, stripe));
+        return node == null ? 0 : (long) node.getProperty(VALUE);
+    }
+
+    private String nodeKey(String counter, int stripe) {
+        return stripe + ":" + counter;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.seedstack.neo4j.Neo4jAdmissionMetrics;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of concurrent transactions on a graph database. Transactions exceeding the limit wait in a
+ * bounded queue for at most the configured timeout before being rejected. When no limit is configured, every
+ * transaction is admitted and only counted.
+ */
+class TransactionBulkhead implements Neo4jAdmissionMetrics {
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final long queueTimeout;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    TransactionBulkhead(Integer maxConcurrent, int maxQueued, long queueTimeout) {
+        this.permits = maxConcurrent == null ? null : new Semaphore(maxConcurrent, true);
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * Tries to admit a new transaction, waiting if necessary.
+     *
+     * @return true if the transaction is admitted, false if it is rejected.
+     */
+    boolean acquire() {
+        if (permits != null && !tryAcquirePermit()) {
+            rejected.increment();
+            return false;
+        }
+        active.incrementAndGet();
+        admitted.increment();
+        return true;
+    }
+
+    private boolean tryAcquirePermit() {
+        try {
+            // a timed acquisition honors fairness, unlike tryAcquire() which barges ahead of queued threads
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                return permits.tryAcquire(queueTimeout, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+                recordWaitTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void release() {
+        active.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    private void recordWaitTime(long waitTime) {
+        totalWaitTime.add(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+    }
+
+    @Override
+    public int getActiveTransactions() {
+        return active.get();
+    }
+
+    @Override
+    public int getQueuedTransactions() {
+        return queued.get();
+    }
+
+    @Override
+    public long getAdmittedTransactions() {
+        return admitted.sum();
+    }
+
+    @Override
+    public long getRejectedTransactions() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getTotalWaitTime() {
+        return totalWaitTime.sum();
+    }
+
+    @Override
+    public long getMaxWaitTime() {
+        return maxWaitTime.get();
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.Test;
+import org.seedstack.neo4j.Neo4jStatistics;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class Neo4jHealthCheckTest {
+    @Test
+    public void healthy_without_database() {
+        assertThat(new Neo4jHealthCheck(Collections.emptyList(), 0.1).check().isHealthy()).isTrue();
+    }
+
+    @Test
+    public void healthy_when_ratios_within_threshold() {
+        HealthCheck.Result result = new Neo4jHealthCheck(Arrays.asList(statistics("db1", 0), statistics("db2", 0.1)), 0.1).check();
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getMessage()).isNull();
+    }
+
+    @Test
+    public void unhealthy_when_ratio_above_threshold() {
+        HealthCheck.Result result = new Neo4jHealthCheck(Arrays.asList(statistics("db1", 0.05), statistics("db2", 0.125), statistics("db3", 1)), 0.1).check();
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Page fault ratio above 10.00% for graph database(s) db2 (12.50%), db3 (100.00%)");
+    }
+
+    private Neo4jStatistics statistics(String name, double pageFaultRatio) {
+        Neo4jStatistics statistics = mock(Neo4jStatistics.class);
+        when(statistics.getName()).thenReturn(name);
+        when(statistics.getPageFaultRatio()).thenReturn(pageFaultRatio);
+        return statistics;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.seedstack.seed.transaction.spi.TransactionMetadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.mock;
+
+public class Neo4jTransactionHandlerTest {
+    private final GraphDatabaseServiceLink graphDatabaseServiceLink = new GraphDatabaseServiceLink();
+    private final GraphDatabaseService primary = mock(GraphDatabaseAPI.class, RETURNS_MOCKS);
+    private final GraphDatabaseService replica1 = mock(GraphDatabaseAPI.class, RETURNS_MOCKS);
+    private final GraphDatabaseService replica2 = mock(GraphDatabaseAPI.class, RETURNS_MOCKS);
+
+    @Test
+    public void read_only_transactions_alternate_between_read_replicas() {
+        Neo4jTransactionHandler handler = createHandler(replica1, replica2);
+        List<GraphDatabaseService> targets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            targets.add(runTransaction(handler, true));
+        }
+        assertThat(targets).containsExactly(replica1, replica2, replica1, replica2);
+    }
+
+    @Test
+    public void write_transactions_use_primary_database() {
+        Neo4jTransactionHandler handler = createHandler(replica1, replica2);
+        assertThat(runTransaction(handler, false)).isSameAs(primary);
+        assertThat(runTransaction(handler, true)).isSameAs(replica1);
+        assertThat(runTransaction(handler, false)).isSameAs(primary);
+        assertThat(runTransaction(handler, true)).isSameAs(replica2);
+    }
+
+    @Test
+    public void read_only_transactions_use_primary_database_without_read_replicas() {
+        Neo4jTransactionHandler handler = createHandler();
+        assertThat(runTransaction(handler, true)).isSameAs(primary);
+        assertThat(runTransaction(handler, true)).isSameAs(primary);
+    }
+
+    private Neo4jTransactionHandler createHandler(GraphDatabaseService... readReplicas) {
+        return new Neo4jTransactionHandler("db", graphDatabaseServiceLink, primary, Arrays.asList(readReplicas), new TransactionBulkhead(null, 0, 0), null, () -> null);
+    }
+
+    private GraphDatabaseService runTransaction(Neo4jTransactionHandler handler, boolean readOnly) {
+        TransactionMetadata transactionMetadata = new TransactionMetadata();
+        if (readOnly) {
+            transactionMetadata.setReadOnly(true);
+        }
+        handler.doInitialize(transactionMetadata);
+        Transaction transaction = handler.doCreateTransaction();
+        try {
+            return graphDatabaseServiceLink.get();
+        } finally {
+            handler.doReleaseTransaction(transaction);
+            handler.doCleanup();
+        }
+    }
+}
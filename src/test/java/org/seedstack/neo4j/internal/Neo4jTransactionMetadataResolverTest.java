@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.neo4j.Neo4jDb;
+import org.seedstack.neo4j.Neo4jExceptionHandler;
+import org.seedstack.seed.transaction.spi.TransactionMetadata;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Neo4jTransactionMetadataResolverTest {
+    private static final int WARMUP_ITERATIONS = 100000;
+    private static final int ITERATIONS = 1000000;
+    private static final long ALLOCATION_TOLERANCE = 1024;
+    private final Neo4jTransactionMetadataResolver resolver = new Neo4jTransactionMetadataResolver();
+    private final TransactionMetadata defaults = new TransactionMetadata().defaults();
+
+    @Before
+    public void setUp() {
+        Neo4jTransactionMetadataResolver.clearPlans();
+        Neo4jTransactionMetadataResolver.defaultDb = "defaultDb";
+    }
+
+    @Test
+    public void annotated_method_is_resolved() throws Exception {
+        TransactionMetadata result = resolver.resolve(new FixedMethodInvocation(Fixture.class.getMethod("annotated")), defaults);
+        assertThat(result.getHandler()).isEqualTo(Neo4jTransactionHandler.class);
+        assertThat(result.getExceptionHandler()).isEqualTo(Neo4jExceptionHandler.class);
+        assertThat(result.getResource()).isEqualTo("db1");
+    }
+
+    @Test
+    public void read_only_method_is_resolved() throws Exception {
+        assertThat(resolver.resolve(new FixedMethodInvocation(Fixture.class.getMethod("readOnly")), defaults).isReadOnly()).isTrue();
+        assertThat(resolver.resolve(new FixedMethodInvocation(Fixture.class.getMethod("annotated")), defaults).isReadOnly()).isNull();
+    }
+
+    @Test
+    public void plan_is_reused_across_invocations() throws Exception {
+        MethodInvocation invocation = new FixedMethodInvocation(Fixture.class.getMethod("annotated"));
+        assertThat(resolver.resolve(invocation, defaults)).isSameAs(resolver.resolve(invocation, defaults));
+    }
+
+    @Test
+    public void non_annotated_method_is_ignored() throws Exception {
+        assertThat(resolver.resolve(new FixedMethodInvocation(Fixture.class.getMethod("notAnnotated")), defaults)).isNull();
+    }
+
+    @Test
+    public void default_database_is_used_with_neo4j_default_handler() throws Exception {
+        TransactionMetadata neo4jDefaults = new TransactionMetadata().defaults();
+        neo4jDefaults.setHandler(Neo4jTransactionHandler.class);
+        TransactionMetadata result = resolver.resolve(new FixedMethodInvocation(Fixture.class.getMethod("notAnnotated")), neo4jDefaults);
+        assertThat(result.getResource()).isEqualTo("defaultDb");
+    }
+
+    @Test
+    public void resolution_does_not_allocate() throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        MethodInvocation invocation = new FixedMethodInvocation(Fixture.class.getMethod("annotated"));
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            resolver.resolve(invocation, defaults);
+        }
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            resolver.resolve(invocation, defaults);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // the tolerance only absorbs the measurement itself, a single byte per invocation would exceed it
+        assertThat(allocated).isLessThan(ALLOCATION_TOLERANCE);
+    }
+
+    public static class Fixture {
+        @Neo4jDb("db1")
+        public void annotated() {
+        }
+
+        @Neo4jDb(value = "db1", readOnly = true)
+        public void readOnly() {
+        }
+
+        public void notAnnotated() {
+        }
+    }
+
+    private static class FixedMethodInvocation implements MethodInvocation {
+        private final Method method;
+
+        private FixedMethodInvocation(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return null;
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.junit.Test;
+import org.seedstack.neo4j.Neo4jConfig;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class PageCacheSizerTest {
+    private static final long MB = 1024L * 1024L;
+    private static final long GB = 1024L * MB;
+    private final Neo4jConfig.MemoryConfig memoryConfig = new Neo4jConfig.MemoryConfig().setReservedMemory(GB).setStoreGrowthFactor(1.5);
+
+    @Test
+    public void nothing_sized_without_auto_sizing() {
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, 16 * GB, 4 * GB, 6 * GB);
+        pageCacheSizer.addDefaultSizedDatabase();
+        pageCacheSizer.addExplicitlySizedDatabase(GB);
+        assertThat(pageCacheSizer.computePageCacheSizes()).isEmpty();
+    }
+
+    @Test
+    public void whole_budget_given_to_single_database() {
+        // budget = 16 - 4 - 1 = 11 GB
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, 16 * GB, 4 * GB, 6 * GB);
+        pageCacheSizer.addAutoSizedDatabase("db1", 2 * GB);
+        assertThat(pageCacheSizer.computePageCacheSizes()).containsOnly(entry("db1", 11 * GB));
+    }
+
+    @Test
+    public void empty_store_gets_the_budget_not_the_minimum() {
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, 64 * GB, 8 * GB, 28 * GB);
+        pageCacheSizer.addAutoSizedDatabase("db1", 0);
+        assertThat(pageCacheSizer.computePageCacheSizes()).containsOnly(entry("db1", 55 * GB));
+    }
+
+    @Test
+    public void default_sized_databases_keep_their_share_and_are_not_resized() {
+        // budget = 16 - 4 - 1 - 6 (Neo4j default of db2) = 5 GB
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, 16 * GB, 4 * GB, 6 * GB);
+        pageCacheSizer.addAutoSizedDatabase("db1", 2 * GB);
+        pageCacheSizer.addDefaultSizedDatabase();
+        assertThat(pageCacheSizer.computePageCacheSizes()).containsOnly(entry("db1", 5 * GB));
+    }
+
+    @Test
+    public void budget_shared_proportionally_to_store_size() {
+        // budget = 16 - 4 - 1 - 1 (explicit) = 10 GB, demands = 4.5 GB + 3 GB
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, 16 * GB, 4 * GB, 6 * GB);
+        pageCacheSizer.addExplicitlySizedDatabase(GB);
+        pageCacheSizer.addAutoSizedDatabase("db1", 3 * GB);
+        pageCacheSizer.addAutoSizedDatabase("db2", 2 * GB);
+        Map<String, Long> pageCacheSizes = pageCacheSizer.computePageCacheSizes();
+        assertThat(pageCacheSizes).containsEntry("db1", 6 * GB);
+        assertThat(pageCacheSizes).containsEntry("db2", 4 * GB);
+    }
+
+    @Test
+    public void minimum_size_when_budget_exhausted() {
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, 4 * GB, 4 * GB, 0);
+        pageCacheSizer.addAutoSizedDatabase("db1", 2 * GB);
+        assertThat(pageCacheSizer.computePageCacheSizes()).containsEntry("db1", PageCacheSizer.MIN_PAGE_CACHE_SIZE);
+    }
+
+    @Test
+    public void nothing_sized_when_physical_memory_unknown() {
+        PageCacheSizer pageCacheSizer = new PageCacheSizer(memoryConfig, -1, 4 * GB, 0);
+        pageCacheSizer.addAutoSizedDatabase("db1", GB);
+        assertThat(pageCacheSizer.computePageCacheSizes()).isEmpty();
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedCountersTest {
+    private static final int STRIPES = 4;
+    private static final long TIMEOUT = 30;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private final GraphDatabaseServiceLink graphDatabaseServiceLink = new GraphDatabaseServiceLink();
+    private GraphDatabaseService graphDatabaseService;
+    private StripedCounters stripedCounters;
+
+    @Before
+    public void setUp() throws Exception {
+        graphDatabaseService = new GraphDatabaseFactory().newEmbeddedDatabase(temporaryFolder.newFolder());
+        stripedCounters = new StripedCounters("db", graphDatabaseServiceLink, graphDatabaseService, STRIPES);
+        stripedCounters.createSchema();
+    }
+
+    @After
+    public void tearDown() {
+        graphDatabaseService.shutdown();
+    }
+
+    @Test
+    public void compaction_folds_stripes_into_base_and_preserves_total() throws Exception {
+        addOnEveryStripe("hits", 10);
+        assertThat(get("hits")).isEqualTo(40L);
+        assertThat(stripeTotal("hits")).isEqualTo(40L);
+        assertThat(baseValue("hits")).isZero();
+
+        stripedCounters.compact();
+
+        assertThat(get("hits")).isEqualTo(40L);
+        assertThat(stripeTotal("hits")).isZero();
+        assertThat(baseValue("hits")).isEqualTo(40L);
+
+        inTransaction(() -> {
+            stripedCounters.add("hits", 5);
+            return null;
+        });
+        stripedCounters.compact();
+        assertThat(get("hits")).isEqualTo(45L);
+        assertThat(baseValue("hits")).isEqualTo(45L);
+    }
+
+    @Test
+    public void concurrent_add_then_get_on_different_stripes() throws Exception {
+        // create all counter nodes first so each transaction sees the stripe written by the other one
+        addOnEveryStripe("hits", 1);
+
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Callable<Long> addThenGet = () -> inTransaction(() -> {
+            stripedCounters.add("hits", 1);
+            barrier.await(TIMEOUT, TimeUnit.SECONDS);
+            return stripedCounters.get("hits");
+        });
+        FutureTask<Long> firstTask = new FutureTask<>(addThenGet);
+        FutureTask<Long> secondTask = new FutureTask<>(addThenGet);
+        Thread first = new Thread(firstTask);
+        Thread second = new Thread(secondTask);
+        while (second.getId() % STRIPES == first.getId() % STRIPES) {
+            second = new Thread(secondTask);
+        }
+
+        first.start();
+        second.start();
+        assertThat(firstTask.get(TIMEOUT, TimeUnit.SECONDS)).isBetween(5L, 6L);
+        assertThat(secondTask.get(TIMEOUT, TimeUnit.SECONDS)).isBetween(5L, 6L);
+        assertThat(get("hits")).isEqualTo(6L);
+    }
+
+    @Test
+    public void concurrent_additions_and_compactions() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Long> decreasingRead = new AtomicReference<>();
+        Thread compactor = new Thread(() -> {
+            while (running.get()) {
+                stripedCounters.compact();
+            }
+        });
+        try {
+            compactor.start();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executorService.submit(() -> {
+                    long previous = 0;
+                    for (int i = 0; i < 100; i++) {
+                        long value = inTransaction(() -> {
+                            stripedCounters.add("hits", 1);
+                            return stripedCounters.get("hits");
+                        });
+                        if (value < previous) {
+                            decreasingRead.set(value);
+                        }
+                        previous = value;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(TIMEOUT, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            compactor.join();
+            executorService.shutdownNow();
+        }
+
+        assertThat(decreasingRead.get()).isNull();
+        assertThat(get("hits")).isEqualTo(800L);
+        stripedCounters.compact();
+        assertThat(get("hits")).isEqualTo(800L);
+        assertThat(baseValue("hits")).isEqualTo(800L);
+    }
+
+    private long get(String counter) throws Exception {
+        return inTransaction(() -> stripedCounters.get(counter));
+    }
+
+    private long baseValue(String counter) {
+        return sum("MATCH (c:StripedCounter {counter: $counter}) WHERE c.stripe = -1 RETURN sum(c.value) AS value", counter);
+    }
+
+    private long stripeTotal(String counter) {
+        return sum("MATCH (c:StripedCounter {counter: $counter}) WHERE c.stripe >= 0 RETURN sum(c.value) AS value", counter);
+    }
+
+    private long sum(String query, String counter) {
+        try (Transaction transaction = graphDatabaseService.beginTx()) {
+            Map<String, Object> row = graphDatabaseService.execute(query, Collections.singletonMap("counter", counter)).next();
+            transaction.success();
+            return ((Number) row.get("value")).longValue();
+        }
+    }
+
+    private <T> T inTransaction(Callable<T> callable) throws Exception {
+        try (Transaction transaction = graphDatabaseService.beginTx()) {
+            graphDatabaseServiceLink.push(graphDatabaseService, transaction);
+            try {
+                T result = callable.call();
+                transaction.success();
+                return result;
+            } finally {
+                graphDatabaseServiceLink.pop();
+            }
+        }
+    }
+
+    private void addOnEveryStripe(String counter, long delta) throws Exception {
+        Set<Long> stripes = new HashSet<>();
+        while (stripes.size() < STRIPES) {
+            FutureTask<Object> task = new FutureTask<>(() -> inTransaction(() -> {
+                stripedCounters.add(counter, delta);
+                return null;
+            }));
+            Thread thread = new Thread(task);
+            if (stripes.add(thread.getId() % STRIPES)) {
+                thread.start();
+                task.get(TIMEOUT, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.neo4j.internal;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionBulkheadTest {
+    private static final long TIMEOUT = 5000;
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void everything_admitted_without_limit() {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(null, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(bulkhead.acquire()).isTrue();
+        }
+        assertThat(bulkhead.getActiveTransactions()).isEqualTo(10);
+        assertThat(bulkhead.getAdmittedTransactions()).isEqualTo(10);
+        bulkhead.release();
+        assertThat(bulkhead.getActiveTransactions()).isEqualTo(9);
+    }
+
+    @Test
+    public void rejected_immediately_without_queue() {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(1, 0, 0);
+        assertThat(bulkhead.acquire()).isTrue();
+        assertThat(bulkhead.acquire()).isFalse();
+        assertThat(bulkhead.getRejectedTransactions()).isEqualTo(1);
+        assertThat(bulkhead.getMaxWaitTime()).isZero();
+        bulkhead.release();
+        assertThat(bulkhead.acquire()).isTrue();
+    }
+
+    @Test
+    public void queued_transaction_admitted_on_release() throws Exception {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(1, 1, TIMEOUT);
+        assertThat(bulkhead.acquire()).isTrue();
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<Boolean> queued = executorService.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return bulkhead.acquire();
+        });
+        awaitParked(waiter);
+        assertThat(bulkhead.getQueuedTransactions()).isEqualTo(1);
+
+        Thread.sleep(100);
+        bulkhead.release();
+
+        assertThat(queued.get(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(bulkhead.getQueuedTransactions()).isZero();
+        assertThat(bulkhead.getActiveTransactions()).isEqualTo(1);
+        assertThat(bulkhead.getAdmittedTransactions()).isEqualTo(2);
+        assertThat(bulkhead.getMaxWaitTime()).isGreaterThanOrEqualTo(100);
+        assertThat(bulkhead.getTotalWaitTime()).isEqualTo(bulkhead.getMaxWaitTime());
+    }
+
+    @Test
+    public void rejected_when_queue_is_full() throws Exception {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(1, 1, TIMEOUT);
+        assertThat(bulkhead.acquire()).isTrue();
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<Boolean> queued = executorService.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return bulkhead.acquire();
+        });
+        awaitParked(waiter);
+
+        long start = System.nanoTime();
+        assertThat(bulkhead.acquire()).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(TIMEOUT);
+        assertThat(bulkhead.getRejectedTransactions()).isEqualTo(1);
+
+        bulkhead.release();
+        assertThat(queued.get(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void queued_transaction_rejected_after_timeout() {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(1, 1, 200);
+        assertThat(bulkhead.acquire()).isTrue();
+        assertThat(bulkhead.acquire()).isFalse();
+        assertThat(bulkhead.getRejectedTransactions()).isEqualTo(1);
+        assertThat(bulkhead.getQueuedTransactions()).isZero();
+        assertThat(bulkhead.getMaxWaitTime()).isGreaterThanOrEqualTo(200);
+        assertThat(bulkhead.getTotalWaitTime()).isEqualTo(bulkhead.getMaxWaitTime());
+    }
+
+    @Test
+    public void released_permit_goes_to_queued_transaction_before_new_callers() throws Exception {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(1, 1, 500);
+        assertThat(bulkhead.acquire()).isTrue();
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<Boolean> queued = executorService.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return bulkhead.acquire();
+        });
+        awaitParked(waiter);
+
+        bulkhead.release();
+
+        // either rejected because the queue is still full or timed out behind the queued transaction
+        assertThat(bulkhead.acquire()).isFalse();
+        assertThat(queued.get(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void interrupted_transaction_rejected_and_interrupt_preserved() throws Exception {
+        TransactionBulkhead bulkhead = new TransactionBulkhead(1, 1, TIMEOUT);
+        assertThat(bulkhead.acquire()).isTrue();
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Future<Boolean> queued = executorService.submit(() -> {
+            waiter.set(Thread.currentThread());
+            boolean admitted = bulkhead.acquire();
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return admitted;
+        });
+        awaitParked(waiter);
+
+        waiter.get().interrupt();
+
+        assertThat(queued.get(TIMEOUT, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(interrupted.get()).isTrue();
+        assertThat(bulkhead.getRejectedTransactions()).isEqualTo(1);
+        assertThat(bulkhead.getQueuedTransactions()).isZero();
+        assertThat(bulkhead.getActiveTransactions()).isEqualTo(1);
+    }
+
+    private void awaitParked(AtomicReference<Thread> waiter) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (waiter.get() == null || waiter.get().getState() != Thread.State.TIMED_WAITING) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Transaction not queued in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+}